@@ -4,12 +4,20 @@ import android.animation.Animator;
 import android.animation.AnimatorListenerAdapter;
 import android.animation.ValueAnimator;
 import android.annotation.SuppressLint;
+import android.annotation.TargetApi;
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.os.Build;
 import android.support.annotation.Nullable;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
+import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+import android.view.WindowInsets;
 import android.view.animation.DecelerateInterpolator;
 import android.widget.FrameLayout;
 
@@ -60,6 +68,29 @@ public class SwipeToHideLayout extends FrameLayout implements SwipeHideable {
 
     private int direction = DIRECTION_NOT_SET;
     private boolean enabled = true;
+    private boolean keepSizeWhileSliding = false;
+    private boolean offsetLayoutPending = false;
+    private int lastCrossSpec;
+    private int lastSlideSpec;
+    private int lastSlideOffset;
+    private final Rect lastPadding = new Rect();
+    private boolean culling = false;
+    private boolean hardwareDrawn = false;
+    private final Rect visibleRect = new Rect();
+    private final Rect currentVisibleRect = new Rect();
+    private final RectF childRect = new RectF();
+    private final ViewTreeObserver.OnScrollChangedListener scrollChangedListener = new ViewTreeObserver.OnScrollChangedListener() {
+        @Override
+        public void onScrollChanged() {
+            invalidateIfVisibleRectChanged();
+        }
+    };
+    private final Rect systemInsets = new Rect();
+    private Integer hiddenOffset = null;
+    private final int[] windowLocation = new int[2];
+    private boolean hideOnBack = false;
+    private float backProgress = 0;
+    private ValueAnimator backAnimator;
     private OnSwipeChangeListener listener;
 
     public SwipeToHideLayout(Context context) {
@@ -78,6 +109,8 @@ public class SwipeToHideLayout extends FrameLayout implements SwipeHideable {
         try {
             direction = a.getInteger(R.styleable.SwipeToHideLayout_direction, DIRECTION_NOT_SET);
             enabled = a.getBoolean(R.styleable.SwipeToHideLayout_enabled, true);
+            keepSizeWhileSliding = a.getBoolean(R.styleable.SwipeToHideLayout_keepSizeWhileSliding, false);
+            hideOnBack = a.getBoolean(R.styleable.SwipeToHideLayout_hideOnBack, false);
         } finally {
             a.recycle();
         }
@@ -92,6 +125,7 @@ public class SwipeToHideLayout extends FrameLayout implements SwipeHideable {
     @Override
     public void setDirection(int direction) {
         this.direction = direction;
+        hiddenOffset = null;
     }
 
     /**
@@ -185,45 +219,312 @@ public class SwipeToHideLayout extends FrameLayout implements SwipeHideable {
         this.listener = listener;
     }
 
-    private void startHideAnimation(int speed) {
-        if (direction == DIRECTION_NOT_SET)
-            throw new SwipeNoDirectionException("You must set direction!");
+    /**
+     * Enable/disable keeping of last measured size while sliding.
+     * When enabled, layout passes caused only by changing offset (dragging, animation)
+     * reuse last measured size and children are not re-measured.
+     *
+     * @param keepSize keep size while sliding
+     */
+    public void setKeepSizeWhileSliding(boolean keepSize) {
+        this.keepSizeWhileSliding = keepSize;
+    }
 
-        final ViewGroup.MarginLayoutParams params = (ViewGroup.MarginLayoutParams) getLayoutParams();
+    /**
+     * Check if last measured size is kept while sliding
+     *
+     * @return is size kept
+     */
+    public boolean isKeepSizeWhileSliding() {
+        return keepSizeWhileSliding;
+    }
+
+    /**
+     * Enable/disable hiding on back press.
+     * Back events must be passed from activity using {@link #onBackPressed()},
+     * {@link #onBackProgressed(float)} and {@link #onBackCancelled()}
+     *
+     * @param hideOnBack hide on back
+     */
+    public void setHideOnBack(boolean hideOnBack) {
+        this.hideOnBack = hideOnBack;
+    }
+
+    /**
+     * Check if view is hidden on back press
+     *
+     * @return is hidden on back
+     */
+    public boolean isHideOnBack() {
+        return hideOnBack;
+    }
 
-        int ofValue = 0;
+    /**
+     * Moves view towards hidden position following back gesture.
+     * Only translation is changed so no layout pass is needed.
+     * Running show/hide animation is not stopped until back is committed.
+     *
+     * @param progress back gesture progress (0-1)
+     */
+    public void onBackProgressed(float progress) {
+        if (!canHideOnBack()) return;
+
+        cancelBackAnimation();
+        setBackProgress(Math.max(0, Math.min(1, progress)));
+    }
+
+    /**
+     * Returns view to its position when back gesture is cancelled
+     */
+    public void onBackCancelled() {
+        if (backProgress == 0) return;
+
+        startBackAnimation(0, false);
+    }
+
+    /**
+     * Hides view on back press (from current back gesture progress)
+     *
+     * @return true if back press was consumed (view is hiding)
+     */
+    public boolean onBackPressed() {
+        if (!canHideOnBack()) return false;
+
+        animating = false;
+        startBackAnimation(1, true);
+        return true;
+    }
+
+    private boolean canHideOnBack() {
+        return hideOnBack && isVisible() && direction != DIRECTION_NOT_SET;
+    }
+
+    private void setBackProgress(float progress) {
+        backProgress = progress;
+
+        ViewGroup.MarginLayoutParams params = (ViewGroup.MarginLayoutParams) getLayoutParams();
+        float distance = (getHiddenOffset() - getOffset(params)) * progress;
         switch (direction) {
             case DIRECTION_LEFT:
-                ofValue = params.leftMargin;
+                setTranslationX(distance);
                 break;
             case DIRECTION_TOP:
-                ofValue = params.topMargin;
+                setTranslationY(distance);
                 break;
             case DIRECTION_RIGHT:
-                ofValue = params.rightMargin;
+                setTranslationX(-distance);
                 break;
             case DIRECTION_BOTTOM:
-                ofValue = params.bottomMargin;
+                setTranslationY(-distance);
                 break;
         }
+    }
+
+    private void cancelBackAnimation() {
+        if (backAnimator != null) {
+            backAnimator.cancel();
+            backAnimator = null;
+        }
+    }
+
+    /**
+     * Cancels back animation and clears back translation
+     */
+    private void resetBackProgress() {
+        cancelBackAnimation();
+        if (backProgress != 0) {
+            setBackProgress(0);
+        }
+    }
+
+    private void startBackAnimation(float progressTo, final boolean hideAtEnd) {
+        cancelBackAnimation();
+
+        final ValueAnimator animator = ValueAnimator.ofFloat(backProgress, progressTo);
+        animator.setInterpolator(new DecelerateInterpolator());
+        animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+            @Override
+            public void onAnimationUpdate(ValueAnimator animation) {
+                setBackProgress((Float) animation.getAnimatedValue());
+            }
+        });
+        animator.addListener(new AnimatorListenerAdapter() {
+            private boolean cancelled = false;
+
+            @Override
+            public void onAnimationCancel(Animator animation) {
+                super.onAnimationCancel(animation);
+                cancelled = true;
+            }
+
+            @Override
+            public void onAnimationEnd(Animator animation) {
+                super.onAnimationEnd(animation);
+                if (cancelled) return;
+
+                backAnimator = null;
+                if (hideAtEnd) {
+                    // move to hidden position, the only layout pass is caused by visibility change
+                    ViewGroup.MarginLayoutParams params = (ViewGroup.MarginLayoutParams) getLayoutParams();
+                    setOffset(params, getHiddenOffset());
+                    setBackProgress(0);
+                    if (isVisible() && listener != null) {
+                        listener.onSwipeChange(false, SwipeToHideLayout.this);
+                    }
+                    setVisibility(GONE);
+                }
+            }
+        });
+        animator.setDuration((long) (DEFAULT_SPEED * Math.abs(progressTo - backProgress)));
+        backAnimator = animator;
+        animator.start();
+    }
+
+    /**
+     * Returns offset (margin) of hidden view.
+     * Only part of system inset between window edge and hiding edge of shown view is added,
+     * view touching window edge is hidden by its size.
+     * Value is cached and recomputed only when size, direction or system insets change.
+     *
+     * @return hidden offset
+     */
+    private int getHiddenOffset() {
+        if (hiddenOffset == null) {
+            int edgeDistance = computeEdgeDistance();
+            switch (direction) {
+                case DIRECTION_LEFT:
+                    hiddenOffset = -(getWidth() + Math.min(systemInsets.left, edgeDistance));
+                    break;
+                case DIRECTION_TOP:
+                    hiddenOffset = -(getHeight() + Math.min(systemInsets.top, edgeDistance));
+                    break;
+                case DIRECTION_RIGHT:
+                    hiddenOffset = -(getWidth() + Math.min(systemInsets.right, edgeDistance));
+                    break;
+                case DIRECTION_BOTTOM:
+                    hiddenOffset = -(getHeight() + Math.min(systemInsets.bottom, edgeDistance));
+                    break;
+                default:
+                    return 0;
+            }
+        }
+        return hiddenOffset;
+    }
 
-        int valueTo = 0;
+    /**
+     * Computes distance between hiding edge of shown view (zero offset) and window edge
+     *
+     * @return distance to window edge
+     */
+    private int computeEdgeDistance() {
+        int offset = getOffset((ViewGroup.MarginLayoutParams) getLayoutParams());
+        getLocationInWindow(windowLocation);
+        int x = windowLocation[0] - (int) getTranslationX();
+        int y = windowLocation[1] - (int) getTranslationY();
+        View root = getRootView();
+
+        int distance = 0;
         switch (direction) {
             case DIRECTION_LEFT:
-                valueTo = -getWidth();
+                distance = x - offset;
                 break;
             case DIRECTION_TOP:
-                valueTo = -getHeight();
+                distance = y - offset;
                 break;
             case DIRECTION_RIGHT:
-                valueTo = -getWidth();
+                distance = root.getWidth() - (x + getWidth() + offset);
                 break;
             case DIRECTION_BOTTOM:
-                valueTo = -getHeight();
+                distance = root.getHeight() - (y + getHeight() + offset);
                 break;
         }
+        return Math.max(0, distance);
+    }
 
-        final ValueAnimator animator = ValueAnimator.ofInt(ofValue, valueTo);
+    private int getOffset(ViewGroup.MarginLayoutParams params) {
+        switch (direction) {
+            case DIRECTION_LEFT:
+                return params.leftMargin;
+            case DIRECTION_TOP:
+                return params.topMargin;
+            case DIRECTION_RIGHT:
+                return params.rightMargin;
+            case DIRECTION_BOTTOM:
+                return params.bottomMargin;
+        }
+        return 0;
+    }
+
+    private void setOffset(ViewGroup.MarginLayoutParams params, int offset) {
+        switch (direction) {
+            case DIRECTION_LEFT:
+                params.leftMargin = offset;
+                break;
+            case DIRECTION_TOP:
+                params.topMargin = offset;
+                break;
+            case DIRECTION_RIGHT:
+                params.rightMargin = offset;
+                break;
+            case DIRECTION_BOTTOM:
+                params.bottomMargin = offset;
+                break;
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.KITKAT_WATCH)
+    @Override
+    public WindowInsets onApplyWindowInsets(WindowInsets insets) {
+        updateSystemInsets(insets);
+        return super.onApplyWindowInsets(insets);
+    }
+
+    /**
+     * Reads root window insets, which are available even if they were consumed by some parent
+     * (e.g. with {@code fitsSystemWindows}). Below api 23 only insets dispatched to this view are known.
+     */
+    @TargetApi(Build.VERSION_CODES.M)
+    private void updateRootWindowInsets() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M && getRootWindowInsets() != null) {
+            updateSystemInsets(getRootWindowInsets());
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.KITKAT_WATCH)
+    private void updateSystemInsets(WindowInsets insets) {
+        if (insets.getSystemWindowInsetLeft() != systemInsets.left
+                || insets.getSystemWindowInsetTop() != systemInsets.top
+                || insets.getSystemWindowInsetRight() != systemInsets.right
+                || insets.getSystemWindowInsetBottom() != systemInsets.bottom) {
+            systemInsets.set(insets.getSystemWindowInsetLeft(), insets.getSystemWindowInsetTop(),
+                    insets.getSystemWindowInsetRight(), insets.getSystemWindowInsetBottom());
+            hiddenOffset = null;
+        }
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        hiddenOffset = null;
+        updateRootWindowInsets();
+    }
+
+    /**
+     * Request layout pass caused only by offset (margin) change
+     */
+    private void requestOffsetLayout() {
+        offsetLayoutPending = true;
+        requestLayout();
+    }
+
+    private void startHideAnimation(int speed) {
+        if (direction == DIRECTION_NOT_SET)
+            throw new SwipeNoDirectionException("You must set direction!");
+
+        resetBackProgress();
+        final ViewGroup.MarginLayoutParams params = (ViewGroup.MarginLayoutParams) getLayoutParams();
+
+        final ValueAnimator animator = ValueAnimator.ofInt(getOffset(params), getHiddenOffset());
         animator.setInterpolator(new DecelerateInterpolator());
         animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
             @Override
@@ -233,21 +534,8 @@ public class SwipeToHideLayout extends FrameLayout implements SwipeHideable {
                     return;
                 }
 
-                switch (direction) {
-                    case DIRECTION_LEFT:
-                        params.leftMargin = (Integer) animation.getAnimatedValue();
-                        break;
-                    case DIRECTION_TOP:
-                        params.topMargin = (Integer) animation.getAnimatedValue();
-                        break;
-                    case DIRECTION_RIGHT:
-                        params.rightMargin = (Integer) animation.getAnimatedValue();
-                        break;
-                    case DIRECTION_BOTTOM:
-                        params.bottomMargin = (Integer) animation.getAnimatedValue();
-                        break;
-                }
-                requestLayout();
+                setOffset(params, (Integer) animation.getAnimatedValue());
+                requestOffsetLayout();
             }
         });
         animator.addListener(new AnimatorListenerAdapter() {
@@ -278,25 +566,11 @@ public class SwipeToHideLayout extends FrameLayout implements SwipeHideable {
         if (direction == DIRECTION_NOT_SET)
             throw new SwipeNoDirectionException("You must set direction!");
 
+        resetBackProgress();
         final ViewGroup.MarginLayoutParams params = (ViewGroup.MarginLayoutParams) getLayoutParams();
         final boolean wasVisible = isVisible();
-        int ofValue = 0;
-        switch (direction) {
-            case DIRECTION_LEFT:
-                ofValue = params.leftMargin;
-                break;
-            case DIRECTION_TOP:
-                ofValue = params.topMargin;
-                break;
-            case DIRECTION_RIGHT:
-                ofValue = params.rightMargin;
-                break;
-            case DIRECTION_BOTTOM:
-                ofValue = params.bottomMargin;
-                break;
-        }
 
-        final ValueAnimator animator = ValueAnimator.ofInt(ofValue, 0);
+        final ValueAnimator animator = ValueAnimator.ofInt(getOffset(params), 0);
         animator.setInterpolator(new DecelerateInterpolator());
         animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
             @Override
@@ -306,21 +580,8 @@ public class SwipeToHideLayout extends FrameLayout implements SwipeHideable {
                     return;
                 }
 
-                switch (direction) {
-                    case DIRECTION_LEFT:
-                        params.leftMargin = (Integer) animation.getAnimatedValue();
-                        break;
-                    case DIRECTION_TOP:
-                        params.topMargin = (Integer) animation.getAnimatedValue();
-                        break;
-                    case DIRECTION_RIGHT:
-                        params.rightMargin = (Integer) animation.getAnimatedValue();
-                        break;
-                    case DIRECTION_BOTTOM:
-                        params.bottomMargin = (Integer) animation.getAnimatedValue();
-                        break;
-                }
-                requestLayout();
+                setOffset(params, (Integer) animation.getAnimatedValue());
+                requestOffsetLayout();
             }
         });
         animator.addListener(new AnimatorListenerAdapter() {
@@ -348,26 +609,171 @@ public class SwipeToHideLayout extends FrameLayout implements SwipeHideable {
         animator.start();
     }
 
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        boolean horizontal = direction == DIRECTION_LEFT || direction == DIRECTION_RIGHT;
+        int crossSpec = horizontal ? heightMeasureSpec : widthMeasureSpec;
+        int slideSpec = horizontal ? widthMeasureSpec : heightMeasureSpec;
+        int slideOffset = getLayoutParams() instanceof ViewGroup.MarginLayoutParams
+                ? getOffset((ViewGroup.MarginLayoutParams) getLayoutParams()) : 0;
+
+        // offsetLayoutPending is cleared in onLayout, parent can measure more times in one pass
+        if (keepSizeWhileSliding && offsetLayoutPending && getMeasuredWidth() > 0 && getMeasuredHeight() > 0
+                && isSameParentSize(crossSpec, slideSpec, slideOffset) && isSamePadding()
+                && !isChildLayoutRequested()) {
+            // only offset changed, children sizes are the same as in last pass
+            setMeasuredDimension(getMeasuredWidthAndState(), getMeasuredHeightAndState());
+            return;
+        }
+
+        offsetLayoutPending = false;
+        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        lastCrossSpec = crossSpec;
+        lastSlideSpec = slideSpec;
+        lastSlideOffset = slideOffset;
+        lastPadding.set(getPaddingLeft(), getPaddingTop(), getPaddingRight(), getPaddingBottom());
+    }
+
+    private boolean isSamePadding() {
+        return lastPadding.left == getPaddingLeft() && lastPadding.top == getPaddingTop()
+                && lastPadding.right == getPaddingRight() && lastPadding.bottom == getPaddingBottom();
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        if (changedView == this && visibility == GONE) {
+            // gone view is not laid out, so pending offset layout would never be cleared
+            offsetLayoutPending = false;
+        }
+    }
+
+    /**
+     * Check if parent size is the same as in last full measure.
+     * Spec in sliding direction can differ only by changed offset (margin).
+     */
+    private boolean isSameParentSize(int crossSpec, int slideSpec, int slideOffset) {
+        if (crossSpec != lastCrossSpec) {
+            return false;
+        }
+        if (slideSpec == lastSlideSpec) {
+            return true;
+        }
+        return MeasureSpec.getMode(slideSpec) == MeasureSpec.getMode(lastSlideSpec)
+                && MeasureSpec.getSize(slideSpec) + slideOffset == MeasureSpec.getSize(lastSlideSpec) + lastSlideOffset;
+    }
+
+    private boolean isChildLayoutRequested() {
+        for (int i = 0; i < getChildCount(); i++) {
+            if (getChildAt(i).isLayoutRequested()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Computes part of this layout (at its layout position) which is not hidden out of parent clip
+     *
+     * @param out visible rect in local coordinates
+     * @return true if layout is (partly) hidden
+     */
+    private boolean computeVisibleRect(Rect out) {
+        out.set(0, 0, getWidth(), getHeight());
+        // getClipChildren() is available since api 18, do not clip when not sure
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR2
+                || !(getParent() instanceof ViewGroup) || !getMatrix().isIdentity()) {
+            return false;
+        }
+
+        ViewGroup parent = (ViewGroup) getParent();
+        if (!parent.getClipChildren()) {
+            return false;
+        }
+
+        int clipLeft = parent.getScrollX();
+        int clipTop = parent.getScrollY();
+        int clipRight = clipLeft + parent.getWidth();
+        int clipBottom = clipTop + parent.getHeight();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP && parent.getClipToPadding()) {
+            clipLeft += parent.getPaddingLeft();
+            clipTop += parent.getPaddingTop();
+            clipRight -= parent.getPaddingRight();
+            clipBottom -= parent.getPaddingBottom();
+        }
+
+        out.left = Math.max(0, clipLeft - getLeft());
+        out.top = Math.max(0, clipTop - getTop());
+        out.right = Math.min(getWidth(), clipRight - getLeft());
+        out.bottom = Math.min(getHeight(), clipBottom - getTop());
+
+        return out.left != 0 || out.top != 0 || out.right != getWidth() || out.bottom != getHeight();
+    }
+
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        // cull only while recording display list, software canvas (e.g. snapshot) is drawn whole
+        if (canvas.isHardwareAccelerated()) {
+            culling = computeVisibleRect(visibleRect);
+            hardwareDrawn = true;
+        } else {
+            culling = false;
+        }
+        super.dispatchDraw(canvas);
+        culling = false;
+    }
+
+    @Override
+    protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+        if (culling && child.getAnimation() == null) {
+            childRect.set(0, 0, child.getWidth(), child.getHeight());
+            child.getMatrix().mapRect(childRect);
+            childRect.offset(child.getLeft(), child.getTop());
+            if (!childRect.intersects(visibleRect.left, visibleRect.top, visibleRect.right, visibleRect.bottom)) {
+                // child is hidden completely, do not record (and re-draw) it
+                return false;
+            }
+        }
+        return super.drawChild(canvas, child, drawingTime);
+    }
+
+    /**
+     * Moving does not re-record display list, so it must be invalidated
+     * when visible part differs from the recorded one.
+     * Children display lists are reused, so only this layout is re-recorded.
+     */
+    private void invalidateIfVisibleRectChanged() {
+        if (!hardwareDrawn) return;
+
+        computeVisibleRect(currentVisibleRect);
+        if (!currentVisibleRect.equals(visibleRect)) {
+            invalidate();
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        getViewTreeObserver().addOnScrollChangedListener(scrollChangedListener);
+        updateRootWindowInsets();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        getViewTreeObserver().removeOnScrollChangedListener(scrollChangedListener);
+        hardwareDrawn = false;
+        super.onDetachedFromWindow();
+    }
+
     @Override
     protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        offsetLayoutPending = false;
         super.onLayout(changed, left, top, right, bottom);
+        invalidateIfVisibleRectChanged();
+
         if (!isVisible()) {
             ViewGroup.MarginLayoutParams lParams = (ViewGroup.MarginLayoutParams) getLayoutParams();
-            boolean hiden = true;
-            switch (direction) {
-                case DIRECTION_LEFT:
-                    hiden = lParams.leftMargin == -getWidth();
-                    break;
-                case DIRECTION_TOP:
-                    hiden = lParams.topMargin == -getHeight();
-                    break;
-                case DIRECTION_RIGHT:
-                    hiden = lParams.rightMargin == -getWidth();
-                    break;
-                case DIRECTION_BOTTOM:
-                    hiden = lParams.bottomMargin == -getHeight();
-                    break;
-            }
+            boolean hiden = direction == DIRECTION_NOT_SET || getOffset(lParams) == getHiddenOffset();
 
             if (!hiden) {
                 hide(0);
@@ -405,20 +811,21 @@ public class SwipeToHideLayout extends FrameLayout implements SwipeHideable {
 
             switch (ev.getAction() & MotionEvent.ACTION_MASK) {
                 case MotionEvent.ACTION_DOWN:
-                    ViewGroup.MarginLayoutParams lParams = (ViewGroup.MarginLayoutParams) getLayoutParams();
+                    resetBackProgress();
+                    int offset = getOffset((ViewGroup.MarginLayoutParams) getLayoutParams());
 
                     switch (direction) {
                         case DIRECTION_LEFT:
-                            _xDelta = _x - lParams.leftMargin;
+                            _xDelta = _x - offset;
                             break;
                         case DIRECTION_TOP:
-                            _yDelta = _y - lParams.topMargin;
+                            _yDelta = _y - offset;
                             break;
                         case DIRECTION_RIGHT:
-                            _xDelta = _x + lParams.rightMargin;
+                            _xDelta = _x + offset;
                             break;
                         case DIRECTION_BOTTOM:
-                            _yDelta = _y + lParams.bottomMargin;
+                            _yDelta = _y + offset;
                             break;
                     }
 
@@ -439,18 +846,19 @@ public class SwipeToHideLayout extends FrameLayout implements SwipeHideable {
 
                     switch (direction) {
                         case DIRECTION_LEFT:
-                            layoutParams.leftMargin = (_x - _xDelta) > 0 ? 0 : (_x - _xDelta);
+                            setOffset(layoutParams, (_x - _xDelta) > 0 ? 0 : (_x - _xDelta));
                             break;
                         case DIRECTION_TOP:
-                            layoutParams.topMargin = (_y - _yDelta) > 0 ? 0 : (_y - _yDelta);
+                            setOffset(layoutParams, (_y - _yDelta) > 0 ? 0 : (_y - _yDelta));
                             break;
                         case DIRECTION_RIGHT:
-                            layoutParams.rightMargin = (_x - _xDelta) > 0 ? -(_x - _xDelta) : 0;
+                            setOffset(layoutParams, (_x - _xDelta) > 0 ? -(_x - _xDelta) : 0);
                             break;
                         case DIRECTION_BOTTOM:
-                            layoutParams.bottomMargin = (_y - _yDelta) > 0 ? -(_y - _yDelta) : 0;
+                            setOffset(layoutParams, (_y - _yDelta) > 0 ? -(_y - _yDelta) : 0);
                             break;
                     }
+                    offsetLayoutPending = true;
                     setLayoutParams(layoutParams);
                     break;
             }